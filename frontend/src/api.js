@@ -51,6 +51,7 @@ export async function createAppointment(patient) {
     body: JSON.stringify(patient),
   });
   if (res.status === 503) throw new Error("No hospital available");
+  if (res.status === 409) throw new Error("Patient ID is registered under a different HKID");
   if (!res.ok) {
     if (res.status === 400) throw new Error("Invalid patient data");
     throw new Error(await extractError(res));
@@ -72,6 +73,22 @@ export async function deleteAppointment(id) {
   return true;
 }
 
+export async function checkInAppointment(id) {
+  const res = await fetchWithNetworkHint(`${BASE}/appointments/${id}/check-in`, { method: "POST" });
+  if (res.status === 404) throw new Error("Appointment not found");
+  if (res.status === 409) throw new Error("Only booked appointments can be checked in");
+  if (!res.ok) throw new Error(await extractError(res));
+  return res.json();
+}
+
+export async function completeAppointment(id) {
+  const res = await fetchWithNetworkHint(`${BASE}/appointments/${id}/complete`, { method: "POST" });
+  if (res.status === 404) throw new Error("Appointment not found");
+  if (res.status === 409) throw new Error("Only checked-in appointments can be completed");
+  if (!res.ok) throw new Error(await extractError(res));
+  return res.json();
+}
+
 export async function listPatients() {
   const res = await fetchWithNetworkHint(`${BASE}/patients`);
   if (!res.ok) throw new Error(await extractError(res));
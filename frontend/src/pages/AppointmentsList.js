@@ -1,5 +1,5 @@
 import React, { useEffect, useState } from "react";
-import { listAppointments, deleteAppointment } from "../api";
+import { listAppointments, deleteAppointment, checkInAppointment, completeAppointment } from "../api";
 import { getHospitals } from "../api";
 
 export default function AppointmentsList() {
@@ -35,6 +35,15 @@ export default function AppointmentsList() {
     }
   };
 
+  const onTransition = async (action, id) => {
+    try {
+      await action(id);
+      load();
+    } catch (e) {
+      setError(e.message);
+    }
+  };
+
   const regionMap = {
     'Hong Kong Island': new Set(['Pok Fu Lam','Chai Wan','Wan Chai','Causeway Bay','Sheung Wan','Central','Tin Hau','Admiralty','North Point']),
     'New Territories': new Set(['Sha Tin','Tai Po','Tuen Mun','Tsuen Wan','Yuen Long','Kwai Chung','Tseung Kwan O','Tin Shui Wai','Ma On Shan','Fanling','Sheung Shui']),
@@ -197,6 +206,8 @@ export default function AppointmentsList() {
                     <td>{fmtDate(a.createdAt)}</td>
                     <td>{a.status}</td>
                     <td>
+                      {a.status === 'BOOKED' && <button onClick={() => onTransition(checkInAppointment, a.id)}>Check in</button>}
+                      {a.status === 'CHECKED_IN' && <button onClick={() => onTransition(completeAppointment, a.id)}>Complete</button>}
                       <button onClick={() => onDelete(a.id)} style={{ background: '#e74c3c', color: 'white', border: 'none' }}>Delete</button>
                     </td>
                   </tr>
@@ -1,6 +1,7 @@
 package clinicalappointment.controller;
 
 import clinicalappointment.model.Appointment;
+import clinicalappointment.model.AppointmentStatus;
 import clinicalappointment.model.Hospital;
 import clinicalappointment.model.Patient;
 import clinicalappointment.service.HospitalService;
@@ -9,6 +10,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
@@ -34,6 +36,13 @@ public class AppointmentController {
         return ResponseEntity.ok(h);
     }
 
+    // Number of booked or checked-in appointments currently assigned to the hospital
+    @GetMapping("/hospitals/{id}/active-appointments")
+    public ResponseEntity<Map<String, Integer>> getActiveAppointments(@PathVariable int id) {
+        if (hospitalService.getHospitalById(id) == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(Map.of("active", appointmentService.getActiveAppointmentCount(id)));
+    }
+
     @PostMapping("/appointments")
     public ResponseEntity<Appointment> createAppointment(@RequestBody Patient patient) {
         if (patient == null || patient.getName() == null) {
@@ -41,18 +50,45 @@ public class AppointmentController {
         }
         Hospital best = hospitalService.findNearestHospital(patient.getX(), patient.getY());
         if (best == null) return ResponseEntity.status(503).build();
-        Appointment appt = appointmentService.createAppointment(patient, best);
-        return ResponseEntity.ok(appt);
+        try {
+            Appointment appt = appointmentService.createAppointment(patient, best);
+            return ResponseEntity.ok(appt);
+        } catch (IllegalStateException ex) {
+            // patient id and HKID point at different registered patients
+            return ResponseEntity.status(409).build();
+        }
     }
 
     // New endpoints for appointments management
     @GetMapping("/appointments")
-    public List<Appointment> listAppointments() {
+    public List<Appointment> listAppointments(@RequestParam(required = false) AppointmentStatus status) {
+        if (status != null) return appointmentService.getAppointmentsByStatus(status);
         return appointmentService.getAllAppointments();
     }
 
+    @PostMapping("/appointments/{id}/check-in")
+    public ResponseEntity<Appointment> checkIn(@PathVariable long id) {
+        return transition(id, AppointmentStatus.CHECKED_IN);
+    }
+
+    @PostMapping("/appointments/{id}/complete")
+    public ResponseEntity<Appointment> complete(@PathVariable long id) {
+        return transition(id, AppointmentStatus.COMPLETED);
+    }
+
+    private ResponseEntity<Appointment> transition(long id, AppointmentStatus next) {
+        try {
+            Appointment appt = appointmentService.transition(id, next);
+            if (appt == null) return ResponseEntity.notFound().build();
+            return ResponseEntity.ok(appt);
+        } catch (IllegalStateException ex) {
+            // appointment is not in a status that allows this step
+            return ResponseEntity.status(409).build();
+        }
+    }
+
     @DeleteMapping("/appointments/{id}")
-    public ResponseEntity<Void> deleteAppointment(@PathVariable int id) {
+    public ResponseEntity<Void> deleteAppointment(@PathVariable long id) {
         boolean ok = appointmentService.deleteAppointment(id);
         if (!ok) return ResponseEntity.notFound().build();
         return ResponseEntity.noContent().build();
@@ -1,13 +1,15 @@
 package clinicalappointment.model;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+
 import java.time.Instant;
 
 public class Appointment {
-    private final int id;
+    private final long id;
     private final Patient patient;
     private final Hospital hospital;
     private final Instant createdAt;
-    private final String status;
+    private final AppointmentStatus status;
 
     // Default constructor
     public Appointment() {
@@ -15,26 +17,28 @@ public class Appointment {
         this.patient = null;
         this.hospital = null;
         this.createdAt = null;
-        this.status = "";
+        this.status = AppointmentStatus.BOOKED;
     }
 
-    public Appointment(int id, Patient patient, Hospital hospital, Instant createdAt, String status) {
+    public Appointment(long id, Patient patient, Hospital hospital, Instant createdAt, AppointmentStatus status) {
         this.id = id;
         this.patient = patient;
         this.hospital = hospital;
         this.createdAt = createdAt;
-        this.status = status == null ? "BOOKED" : status;
+        this.status = status == null ? AppointmentStatus.BOOKED : status;
     }
 
-    public Appointment(int id, Patient patient, Hospital hospital) {
-        this(id, patient, hospital, Instant.now(), "BOOKED");
+    public Appointment(long id, Patient patient, Hospital hospital) {
+        this(id, patient, hospital, Instant.now(), AppointmentStatus.BOOKED);
     }
 
-    public int getId() { return id; }
+    // 64-bit ids exceed JavaScript's safe integer range, so they are sent as strings
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public long getId() { return id; }
     public Patient getPatient() { return patient; }
     public Hospital getHospital() { return hospital; }
     public Instant getCreatedAt() { return createdAt; }
-    public String getStatus() { return status; }
+    public AppointmentStatus getStatus() { return status; }
 
     @Override
     public String toString() {
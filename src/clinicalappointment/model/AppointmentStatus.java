@@ -0,0 +1,45 @@
+package clinicalappointment.model;
+
+public enum AppointmentStatus {
+    BOOKED(1),
+    CHECKED_IN(2),
+    COMPLETED(3),
+    EXPIRED(4),
+    NO_SHOW(5);
+
+    private static final AppointmentStatus[] BY_CODE = new AppointmentStatus[values().length + 1];
+    static {
+        for (AppointmentStatus s : values()) BY_CODE[s.code] = s;
+    }
+
+    // Compact code used by the appointment store; 0 is reserved for "no status"
+    private final byte code;
+
+    AppointmentStatus(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() { return code; }
+
+    public static AppointmentStatus fromCode(byte code) {
+        if (code <= 0 || code >= BY_CODE.length) throw new IllegalArgumentException("Unknown status code " + code);
+        return BY_CODE[code];
+    }
+
+    // Active appointments count against a hospital's capacity
+    public boolean isActive() {
+        return this == BOOKED || this == CHECKED_IN;
+    }
+
+    // BOOKED -> CHECKED_IN | NO_SHOW, CHECKED_IN -> COMPLETED | EXPIRED; the rest are terminal
+    public boolean canTransitionTo(AppointmentStatus next) {
+        switch (this) {
+            case BOOKED:
+                return next == CHECKED_IN || next == NO_SHOW;
+            case CHECKED_IN:
+                return next == COMPLETED || next == EXPIRED;
+            default:
+                return false;
+        }
+    }
+}
@@ -1,57 +1,149 @@
 package clinicalappointment.service;
 
 import clinicalappointment.model.Appointment;
+import clinicalappointment.model.AppointmentStatus;
 import clinicalappointment.model.Patient;
 import clinicalappointment.model.Hospital;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 @Service
 public class AppointmentService {
-    private final Map<Integer, Appointment> appointments = new LinkedHashMap<>();
-    private final AtomicInteger idGen = new AtomicInteger(1);
-    private final AtomicInteger patientIdGen = new AtomicInteger(1);
+    // Appointments are kept as compact records; full Appointment objects are only built when returned
+    private final AppointmentStore store = new AppointmentStore();
+    private final PatientRegistry patients = new PatientRegistry();
+    private final SnowflakeIdGenerator idGenerator;
+    // BOOKED appointments become NO_SHOW after noShowAfter; CHECKED_IN ones become EXPIRED after expireAfter
+    private final HierarchicalTimerWheel deadlines;
+    private final Duration noShowAfter;
+    private final Duration expireAfter;
 
-    public AppointmentService() {
-        // empty
+    public AppointmentService(SnowflakeIdGenerator idGenerator,
+                              @Value("${app.appointments.no-show-after:4h}") Duration noShowAfter,
+                              @Value("${app.appointments.expire-after:12h}") Duration expireAfter,
+                              @Value("${app.appointments.timer-tick-ms:1000}") long timerTickMillis) {
+        this.idGenerator = idGenerator;
+        this.noShowAfter = noShowAfter;
+        this.expireAfter = expireAfter;
+        this.deadlines = new HierarchicalTimerWheel(timerTickMillis, System.currentTimeMillis());
     }
 
-    public Appointment createAppointment(Patient patient, Hospital hospital) {
-        // assign patient id if missing
-        if (patient.getId() == null || patient.getId().isEmpty()) {
-            patient.setId("P" + patientIdGen.getAndIncrement());
+    /**
+     * Books an appointment for the patient at the hospital.
+     * @throws IllegalStateException if the patient's id and HKID belong to different registered patients
+     */
+    public synchronized Appointment createAppointment(Patient patient, Hospital hospital) {
+        // reuse the registered patient (matched by HKID or id), or assign a new patient id
+        int patientRef = patients.acquire(patient, () -> "P" + idGenerator.nextId());
+        long id = idGenerator.nextId();
+        long now = System.currentTimeMillis();
+        // the merged profile now carries the booking's name; sharing its String costs nothing per slot
+        String bookedName = patients.get(patientRef).getName();
+        int slot = store.add(id, patientRef, hospital, now, AppointmentStatus.BOOKED, bookedName, patient);
+        deadlines.schedule(id, now + noShowAfter.toMillis(), AppointmentStatus.BOOKED.getCode());
+        return toModel(slot);
+    }
+
+    public synchronized List<Appointment> getAllAppointments() {
+        List<Appointment> out = new ArrayList<>(store.liveCount());
+        for (int slot = 0; slot < store.slotLimit(); slot++) {
+            if (store.isLive(slot)) out.add(toModel(slot));
         }
-        int id = idGen.getAndIncrement();
-        Appointment a = new Appointment(id, patient, hospital, Instant.now(), "BOOKED");
-        appointments.put(id, a);
-        return a;
+        return out;
     }
 
-    public List<Appointment> getAllAppointments() {
-        return new ArrayList<>(appointments.values());
+    public synchronized List<Appointment> getAppointmentsByStatus(AppointmentStatus status) {
+        int[] slots = store.slotsWithStatus(status);
+        List<Appointment> out = new ArrayList<>(slots.length);
+        for (int slot : slots) out.add(toModel(slot));
+        return out;
+    }
+
+    public synchronized int getActiveAppointmentCount(int hospitalId) {
+        return store.activeAt(hospitalId);
+    }
+
+    /**
+     * Moves an appointment to {@code next}. Returns null if there is no such appointment.
+     * @throws IllegalStateException if the appointment's current status does not allow the move
+     */
+    public synchronized Appointment transition(long id, AppointmentStatus next) {
+        int slot = store.slotOf(id);
+        if (slot < 0) return null;
+        AppointmentStatus current = store.status(slot);
+        if (!current.canTransitionTo(next)) {
+            throw new IllegalStateException("Cannot move appointment " + id + " from " + current + " to " + next);
+        }
+        store.setStatus(slot, next);
+        if (next == AppointmentStatus.CHECKED_IN) {
+            deadlines.schedule(id, System.currentTimeMillis() + expireAfter.toMillis(), next.getCode());
+        }
+        return toModel(slot);
+    }
+
+    // Timers are not cancelled on check-in, completion or delete; a timer whose status no longer matches is ignored
+    @Scheduled(fixedDelayString = "${app.appointments.timer-tick-ms:1000}")
+    public synchronized void expireDueAppointments() {
+        deadlines.advance(System.currentTimeMillis(), (id, tag) -> {
+            int slot = store.slotOf(id);
+            if (slot < 0 || store.status(slot).getCode() != tag) return;
+            if (tag == AppointmentStatus.BOOKED.getCode()) {
+                store.setStatus(slot, AppointmentStatus.NO_SHOW);
+            } else if (tag == AppointmentStatus.CHECKED_IN.getCode()) {
+                store.setStatus(slot, AppointmentStatus.EXPIRED);
+            }
+        });
+    }
+
+    public synchronized boolean deleteAppointment(long id) {
+        int slot = store.slotOf(id);
+        if (slot < 0) return false;
+        removeSlot(slot);
+        store.compactIfSparse();
+        return true;
+    }
+
+    public synchronized List<Patient> getAllPatients() {
+        return patients.getAll();
+    }
+
+    // Matches the name each appointment was booked under, not the patient's latest name
+    public synchronized int deleteAppointmentsByPatientName(String name) {
+        int count = 0;
+        for (int slot = 0; slot < store.slotLimit(); slot++) {
+            if (!store.isLive(slot)) continue;
+            if (name.equals(store.bookedName(slot))) {
+                removeSlot(slot);
+                count++;
+            }
+        }
+        store.compactIfSparse();
+        return count;
     }
 
-    public boolean deleteAppointment(int id) {
-        return appointments.remove(id) != null;
+    private void removeSlot(int slot) {
+        patients.release(store.patientRef(slot));
+        store.remove(slot);
     }
 
-    public List<Patient> getAllPatients() {
-        return appointments.values().stream()
-                .map(Appointment::getPatient)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+    private Appointment toModel(int slot) {
+        return new Appointment(store.id(slot), visitPatient(slot), store.hospital(slot),
+                Instant.ofEpochMilli(store.createdAtMillis(slot)), store.status(slot));
     }
 
-    public int deleteAppointmentsByPatientName(String name) {
-        List<Integer> toRemove = appointments.values().stream()
-                .filter(a -> a.getPatient() != null && name.equals(a.getPatient().getName()))
-                .map(Appointment::getId)
-                .collect(Collectors.toList());
-        toRemove.forEach(appointments::remove);
-        return toRemove.size();
+    // The registered patient's shared details combined with this appointment's booked name, location and records
+    private Patient visitPatient(int slot) {
+        Patient p = patients.snapshot(store.patientRef(slot));
+        p.setName(store.bookedName(slot));
+        p.setX(store.visitX(slot));
+        p.setY(store.visitY(slot));
+        p.setIllnessRecord(store.illnessRecord(slot));
+        p.setHealthRecord(store.healthRecord(slot));
+        return p;
     }
 }
@@ -0,0 +1,229 @@
+package clinicalappointment.service;
+
+import clinicalappointment.model.AppointmentStatus;
+import clinicalappointment.model.Hospital;
+import clinicalappointment.model.Patient;
+
+import java.util.*;
+
+/**
+ * Column-oriented appointment storage: one slot per appointment across parallel arrays (id, patient
+ * ref, hospital ref, created-at millis, status byte, status list links, and the visit's booked name,
+ * location and illness/health records), about 61 bytes per appointment plus the id index and any
+ * record text.
+ * Deleted slots are tombstoned and compacted away once they make up half the store, so iteration
+ * stays in insertion order.
+ * Each status has an intrusive linked list through the slots so appointments in one status can be
+ * listed without a full scan, and each hospital has a counter of active (booked or checked-in)
+ * appointments. Not thread-safe.
+ */
+final class AppointmentStore {
+    private static final byte STATUS_REMOVED = 0;
+    private static final int STATUS_CODES = AppointmentStatus.values().length + 1;
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] patientRefs = new int[INITIAL_CAPACITY];
+    private int[] hospitalRefs = new int[INITIAL_CAPACITY];
+    private long[] createdAtMillis = new long[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    // per-visit patient details; blank records are stored as null
+    private String[] bookedNames = new String[INITIAL_CAPACITY];
+    private double[] visitX = new double[INITIAL_CAPACITY];
+    private double[] visitY = new double[INITIAL_CAPACITY];
+    private String[] illnessRecords = new String[INITIAL_CAPACITY];
+    private String[] healthRecords = new String[INITIAL_CAPACITY];
+    private int size;
+    private int removed;
+    private final LongIntHashMap slotById = new LongIntHashMap(INITIAL_CAPACITY);
+
+    // status index: per-status doubly linked list of slots
+    private int[] statusNext = new int[INITIAL_CAPACITY];
+    private int[] statusPrev = new int[INITIAL_CAPACITY];
+    private final int[] statusHead = new int[STATUS_CODES];
+    private final int[] statusTail = new int[STATUS_CODES];
+    private final int[] statusCounts = new int[STATUS_CODES];
+
+    // Hospitals are few, so each distinct one is kept once and referenced by index
+    private final List<Hospital> hospitals = new ArrayList<>();
+    private final Map<Integer, Integer> hospitalRefByNodeId = new HashMap<>();
+    private int[] activeByHospitalRef = new int[16];
+
+    AppointmentStore() {
+        Arrays.fill(statusHead, NONE);
+        Arrays.fill(statusTail, NONE);
+    }
+
+    /**
+     * Adds an appointment; {@code bookedName} is the name it was booked under (pass the registered
+     * profile's String so repeat bookings share it), the other per-visit fields come from {@code visit}.
+     */
+    int add(long id, int patientRef, Hospital hospital, long createdAt, AppointmentStatus status,
+            String bookedName, Patient visit) {
+        if (size == ids.length) grow();
+        int slot = size++;
+        ids[slot] = id;
+        patientRefs[slot] = patientRef;
+        hospitalRefs[slot] = hospitalRef(hospital);
+        createdAtMillis[slot] = createdAt;
+        statuses[slot] = status.getCode();
+        bookedNames[slot] = bookedName;
+        visitX[slot] = visit.getX();
+        visitY[slot] = visit.getY();
+        illnessRecords[slot] = blankToNull(visit.getIllnessRecord());
+        healthRecords[slot] = blankToNull(visit.getHealthRecord());
+        slotById.put(id, slot);
+        link(slot);
+        count(slot, 1);
+        return slot;
+    }
+
+    /** Returns the slot holding {@code id}, or -1 if there is none. */
+    int slotOf(long id) {
+        return slotById.get(id);
+    }
+
+    void setStatus(int slot, AppointmentStatus status) {
+        unlink(slot);
+        count(slot, -1);
+        statuses[slot] = status.getCode();
+        link(slot);
+        count(slot, 1);
+    }
+
+    /** Tombstones the slot; the caller must not use it afterwards. */
+    void remove(int slot) {
+        slotById.remove(ids[slot]);
+        unlink(slot);
+        count(slot, -1);
+        statuses[slot] = STATUS_REMOVED;
+        bookedNames[slot] = null;
+        illnessRecords[slot] = null;
+        healthRecords[slot] = null;
+        removed++;
+    }
+
+    /** Compacts tombstoned slots if they make up half the store. Invalidates previously returned slots. */
+    void compactIfSparse() {
+        if (removed < INITIAL_CAPACITY || removed * 2 < size) return;
+        int out = 0;
+        for (int in = 0; in < size; in++) {
+            if (statuses[in] == STATUS_REMOVED) continue;
+            if (out != in) {
+                ids[out] = ids[in];
+                patientRefs[out] = patientRefs[in];
+                hospitalRefs[out] = hospitalRefs[in];
+                createdAtMillis[out] = createdAtMillis[in];
+                statuses[out] = statuses[in];
+                bookedNames[out] = bookedNames[in];
+                bookedNames[in] = null;
+                visitX[out] = visitX[in];
+                visitY[out] = visitY[in];
+                illnessRecords[out] = illnessRecords[in];
+                healthRecords[out] = healthRecords[in];
+                illnessRecords[in] = null;
+                healthRecords[in] = null;
+                slotById.put(ids[out], out);
+            }
+            out++;
+        }
+        size = out;
+        removed = 0;
+        // slot numbers changed, so rebuild the status lists (counts are unaffected)
+        Arrays.fill(statusHead, NONE);
+        Arrays.fill(statusTail, NONE);
+        for (int slot = 0; slot < size; slot++) link(slot);
+    }
+
+    /** Upper bound (exclusive) for slot iteration; skip slots where {@link #isLive(int)} is false. */
+    int slotLimit() { return size; }
+    int liveCount() { return size - removed; }
+    boolean isLive(int slot) { return statuses[slot] != STATUS_REMOVED; }
+
+    long id(int slot) { return ids[slot]; }
+    int patientRef(int slot) { return patientRefs[slot]; }
+    Hospital hospital(int slot) { return hospitals.get(hospitalRefs[slot]); }
+    long createdAtMillis(int slot) { return createdAtMillis[slot]; }
+    AppointmentStatus status(int slot) { return AppointmentStatus.fromCode(statuses[slot]); }
+    String bookedName(int slot) { return bookedNames[slot]; }
+    double visitX(int slot) { return visitX[slot]; }
+    double visitY(int slot) { return visitY[slot]; }
+    String illnessRecord(int slot) { return illnessRecords[slot] == null ? "" : illnessRecords[slot]; }
+    String healthRecord(int slot) { return healthRecords[slot] == null ? "" : healthRecords[slot]; }
+
+    /** Slots currently in {@code status}, in slot (insertion) order like a full iteration. */
+    int[] slotsWithStatus(AppointmentStatus status) {
+        int code = status.getCode();
+        int[] out = new int[statusCounts[code]];
+        int i = 0;
+        for (int slot = statusHead[code]; slot != NONE; slot = statusNext[slot]) out[i++] = slot;
+        // lists are appended in transition order; sorting costs O(k log k) for the k matches only
+        Arrays.sort(out);
+        return out;
+    }
+
+    /** Booked or checked-in appointments at the hospital with this node id. */
+    int activeAt(int hospitalNodeId) {
+        Integer ref = hospitalRefByNodeId.get(hospitalNodeId);
+        return ref == null ? 0 : activeByHospitalRef[ref];
+    }
+
+    private void link(int slot) {
+        int code = statuses[slot];
+        int tail = statusTail[code];
+        statusPrev[slot] = tail;
+        statusNext[slot] = NONE;
+        if (tail == NONE) statusHead[code] = slot;
+        else statusNext[tail] = slot;
+        statusTail[code] = slot;
+    }
+
+    private void unlink(int slot) {
+        int code = statuses[slot];
+        int prev = statusPrev[slot];
+        int nextSlot = statusNext[slot];
+        if (prev == NONE) statusHead[code] = nextSlot;
+        else statusNext[prev] = nextSlot;
+        if (nextSlot == NONE) statusTail[code] = prev;
+        else statusPrev[nextSlot] = prev;
+    }
+
+    private void count(int slot, int delta) {
+        statusCounts[statuses[slot]] += delta;
+        if (AppointmentStatus.fromCode(statuses[slot]).isActive()) {
+            activeByHospitalRef[hospitalRefs[slot]] += delta;
+        }
+    }
+
+    private int hospitalRef(Hospital h) {
+        Integer ref = hospitalRefByNodeId.get(h.getNodeId());
+        if (ref == null) {
+            ref = hospitals.size();
+            hospitals.add(h);
+            hospitalRefByNodeId.put(h.getNodeId(), ref);
+            if (ref == activeByHospitalRef.length) activeByHospitalRef = Arrays.copyOf(activeByHospitalRef, ref * 2);
+        }
+        return ref;
+    }
+
+    private void grow() {
+        int cap = ids.length * 2;
+        ids = Arrays.copyOf(ids, cap);
+        patientRefs = Arrays.copyOf(patientRefs, cap);
+        hospitalRefs = Arrays.copyOf(hospitalRefs, cap);
+        createdAtMillis = Arrays.copyOf(createdAtMillis, cap);
+        statuses = Arrays.copyOf(statuses, cap);
+        statusNext = Arrays.copyOf(statusNext, cap);
+        statusPrev = Arrays.copyOf(statusPrev, cap);
+        bookedNames = Arrays.copyOf(bookedNames, cap);
+        visitX = Arrays.copyOf(visitX, cap);
+        visitY = Arrays.copyOf(visitY, cap);
+        illnessRecords = Arrays.copyOf(illnessRecords, cap);
+        healthRecords = Arrays.copyOf(healthRecords, cap);
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
+    }
+}
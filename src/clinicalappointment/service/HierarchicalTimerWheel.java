@@ -0,0 +1,125 @@
+package clinicalappointment.service;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical hashed timer wheel for appointment deadlines.
+ * Four levels of 64 slots; level {@code l} slots span {@code 64^l} ticks, so with a one second tick
+ * the wheel covers about 194 days before entries have to be re-parked in the top level.
+ * Advancing costs O(elapsed ticks + due entries + entries cascaded down a level), independent of the
+ * number of pending timers. Timers are never cancelled; the handler is expected to ignore stale ones.
+ * Entries live in pooled primitive arrays. Not thread-safe.
+ */
+final class HierarchicalTimerWheel {
+    interface ExpiryHandler {
+        void onExpire(long id, byte tag);
+    }
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int NONE = -1;
+
+    private final long tickMillis;
+    private long currentTick;
+    private final int[] heads = new int[LEVELS * SLOTS];
+
+    // entry pool: singly linked through next[], freed entries chained from freeHead
+    private long[] ids = new long[64];
+    private long[] deadlineTicks = new long[64];
+    private byte[] tags = new byte[64];
+    private int[] next = new int[64];
+    private int poolSize;
+    private int freeHead = NONE;
+    private int pending;
+
+    HierarchicalTimerWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("tickMillis must be positive");
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        Arrays.fill(heads, NONE);
+    }
+
+    /** Schedules {@code id} to fire no earlier than {@code deadlineMillis}; past deadlines fire on the next tick. */
+    void schedule(long id, long deadlineMillis, byte tag) {
+        // round up so an entry never fires before its deadline
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        int e = allocate();
+        ids[e] = id;
+        deadlineTicks[e] = tick;
+        tags[e] = tag;
+        insert(e, currentTick);
+        pending++;
+    }
+
+    /** Fires every entry whose deadline is at or before {@code nowMillis}. */
+    void advance(long nowMillis, ExpiryHandler handler) {
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < target) {
+            if (pending == 0) {
+                currentTick = target;
+                return;
+            }
+            long t = currentTick + 1;
+            // cascade higher levels whose slot boundary is reached, top first
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                int shift = SLOT_BITS * level;
+                if ((t & ((1L << shift) - 1)) != 0) continue;
+                int slot = level * SLOTS + (int) ((t >>> shift) & SLOT_MASK);
+                int e = heads[slot];
+                heads[slot] = NONE;
+                while (e != NONE) {
+                    int n = next[e];
+                    insert(e, t);
+                    e = n;
+                }
+            }
+            int slot = (int) (t & SLOT_MASK);
+            int e = heads[slot];
+            heads[slot] = NONE;
+            currentTick = t;
+            while (e != NONE) {
+                int n = next[e];
+                long id = ids[e];
+                byte tag = tags[e];
+                release(e);
+                pending--;
+                handler.onExpire(id, tag);
+                e = n;
+            }
+        }
+    }
+
+    // Places e in the lowest level whose span covers its distance from base; called with deadline >= base
+    private void insert(int e, long base) {
+        long deadline = deadlineTicks[e];
+        long delta = deadline - base;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) level++;
+        int slot = level * SLOTS + (int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+        next[e] = heads[slot];
+        heads[slot] = e;
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            int e = freeHead;
+            freeHead = next[e];
+            return e;
+        }
+        if (poolSize == ids.length) {
+            int cap = poolSize * 2;
+            ids = Arrays.copyOf(ids, cap);
+            deadlineTicks = Arrays.copyOf(deadlineTicks, cap);
+            tags = Arrays.copyOf(tags, cap);
+            next = Arrays.copyOf(next, cap);
+        }
+        return poolSize++;
+    }
+
+    private void release(int e) {
+        next[e] = freeHead;
+        freeHead = e;
+    }
+}
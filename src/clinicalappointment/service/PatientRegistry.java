@@ -0,0 +1,150 @@
+package clinicalappointment.service;
+
+import clinicalappointment.model.Patient;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Stores each patient once and hands out int refs for appointments to point at.
+ * Patients are deduplicated by HKID, falling back to the patient id when no HKID is given.
+ * Only identity and demographic fields (plus the last known location) are kept here; the per-visit
+ * illness/health records stay with each appointment. A rebooking fills in fields it provides and
+ * leaves the rest as they were. A patient is dropped once no appointment references it. Not thread-safe.
+ */
+final class PatientRegistry {
+    private final List<Patient> patients = new ArrayList<>();
+    private int[] refCounts = new int[16];
+    private final Map<String, Integer> refByKey = new HashMap<>();
+    private final Deque<Integer> freeRefs = new ArrayDeque<>();
+    // Low-cardinality values (sex) shared across all patients instead of one String per request
+    private static final int MAX_INTERNED = 64;
+    private final Map<String, String> interned = new HashMap<>();
+
+    /**
+     * Registers the booking's patient, or merges its non-blank details into the matching registered
+     * patient, and takes a reference on it. An existing patient keeps its id; a new one keeps the
+     * id it was sent with, or gets one from {@code idSupplier}.
+     * @throws IllegalStateException if the booking has an unregistered HKID but an id that already
+     *         belongs to a registered patient, since it cannot be told which patient it means
+     */
+    int acquire(Patient booking, Supplier<String> idSupplier) {
+        Integer existing = lookup(booking);
+        Patient profile;
+        int ref;
+        if (existing != null) {
+            ref = existing;
+            profile = patients.get(ref);
+            unbind(profile, ref);
+        } else {
+            profile = new Patient();
+            profile.setId(isBlank(booking.getId()) ? idSupplier.get() : booking.getId());
+            ref = allocate(profile);
+        }
+        merge(profile, booking);
+        bind(profile, ref);
+        refCounts[ref]++;
+        return ref;
+    }
+
+    void release(int ref) {
+        if (--refCounts[ref] > 0) return;
+        unbind(patients.get(ref), ref);
+        patients.set(ref, null);
+        freeRefs.push(ref);
+    }
+
+    Patient get(int ref) {
+        return patients.get(ref);
+    }
+
+    /** A detached copy of the registered profile, safe to hand out and serialize outside the lock. */
+    Patient snapshot(int ref) {
+        Patient profile = patients.get(ref);
+        Patient p = new Patient(profile.getName(), profile.getX(), profile.getY());
+        p.setId(profile.getId());
+        p.setHkid(profile.getHkid());
+        p.setAge(profile.getAge());
+        p.setSex(profile.getSex());
+        p.setDob(profile.getDob());
+        p.setEmail(profile.getEmail());
+        p.setPhone(profile.getPhone());
+        return p;
+    }
+
+    /** Copies of all registered patients. */
+    List<Patient> getAll() {
+        List<Patient> out = new ArrayList<>(patients.size() - freeRefs.size());
+        for (int ref = 0; ref < patients.size(); ref++) {
+            if (patients.get(ref) != null) out.add(snapshot(ref));
+        }
+        return out;
+    }
+
+    private void merge(Patient profile, Patient booking) {
+        if (!isBlank(booking.getName())) profile.setName(booking.getName());
+        if (!isBlank(booking.getHkid())) profile.setHkid(booking.getHkid());
+        if (!isBlank(booking.getSex())) profile.setSex(intern(booking.getSex()));
+        if (!isBlank(booking.getDob())) profile.setDob(booking.getDob());
+        if (!isBlank(booking.getEmail())) profile.setEmail(booking.getEmail());
+        if (!isBlank(booking.getPhone())) profile.setPhone(booking.getPhone());
+        if (booking.getAge() > 0) profile.setAge(booking.getAge());
+        if (booking.getX() != 0.0 || booking.getY() != 0.0) {
+            profile.setX(booking.getX());
+            profile.setY(booking.getY());
+        }
+    }
+
+    // HKID decides identity when given; the id is only used to match bookings without one
+    private Integer lookup(Patient p) {
+        Integer byId = isBlank(p.getId()) ? null : refByKey.get(idKey(p.getId()));
+        if (isBlank(p.getHkid())) return byId;
+        Integer byHkid = refByKey.get(hkidKey(p.getHkid()));
+        if (byHkid == null && byId != null) {
+            throw new IllegalStateException("Patient id " + p.getId() + " is registered under a different HKID");
+        }
+        return byHkid;
+    }
+
+    private int allocate(Patient p) {
+        Integer free = freeRefs.poll();
+        if (free != null) {
+            patients.set(free, p);
+            return free;
+        }
+        int ref = patients.size();
+        patients.add(p);
+        if (ref == refCounts.length) refCounts = Arrays.copyOf(refCounts, ref * 2);
+        return ref;
+    }
+
+    private void bind(Patient p, int ref) {
+        if (!isBlank(p.getHkid())) refByKey.put(hkidKey(p.getHkid()), ref);
+        refByKey.put(idKey(p.getId()), ref);
+    }
+
+    private void unbind(Patient p, int ref) {
+        if (!isBlank(p.getHkid())) refByKey.remove(hkidKey(p.getHkid()), ref);
+        refByKey.remove(idKey(p.getId()), ref);
+    }
+
+    private String intern(String value) {
+        String v = value.trim();
+        String shared = interned.get(v);
+        if (shared != null) return shared;
+        if (interned.size() < MAX_INTERNED) interned.put(v, v);
+        return v;
+    }
+
+    private static String hkidKey(String hkid) {
+        return "H:" + hkid.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String idKey(String id) {
+        return "I:" + id;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+}
@@ -0,0 +1,77 @@
+package clinicalappointment.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coordination-free 64-bit id generator (Snowflake layout):
+ * 1 unused sign bit | 41 bits millis since {@link #EPOCH_MILLIS} | 10 bits node id | 12 bits sequence.
+ * Ids are unique across instances as long as every instance is configured with a distinct
+ * {@code app.node-id}, and are roughly ordered by creation time.
+ */
+@Component
+public class SnowflakeIdGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(SnowflakeIdGenerator.class);
+
+    // 2024-01-01T00:00:00Z; 41 bits of millis from here lasts until ~2093
+    static final long EPOCH_MILLIS = 1704067200000L;
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // app.node-id left unset; falls back to node 0, which is only safe for a single instance
+    static final long UNSET_NODE_ID = -1;
+    // Log once the wall clock falls this far behind the last issued timestamp
+    private static final long SKEW_WARN_MILLIS = 1000;
+
+    private final long nodeId;
+    // Last issued (timestamp << SEQUENCE_BITS | sequence), advanced with a single CAS per id
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(@Value("${app.node-id:-1}") long nodeId) {
+        if (nodeId == UNSET_NODE_ID) {
+            logger.warn("app.node-id (NODE_ID) is not set, using node id 0. "
+                    + "Instances sharing a node id generate colliding ids; set a distinct NODE_ID per instance.");
+            nodeId = 0;
+        } else if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("app.node-id must be between 0 and " + MAX_NODE_ID + ", got " + nodeId);
+        } else {
+            logger.info("Generating ids as node {}", nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    public long nextId() {
+        while (true) {
+            long prev = state.get();
+            long prevTs = prev >>> SEQUENCE_BITS;
+            long now = currentMillis() - EPOCH_MILLIS;
+            long next;
+            if (now > prevTs) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // Same millisecond, or the clock went backwards: keep issuing from the last timestamp.
+                // Sequence overflow borrows the next millisecond instead of spinning until the clock catches up.
+                next = prev + 1;
+                if (prevTs - now > SKEW_WARN_MILLIS && (prev & SEQUENCE_MASK) == 0) {
+                    logger.warn("System clock is {} ms behind the last issued id timestamp; continuing from logical clock", prevTs - now);
+                }
+            }
+            if (state.compareAndSet(prev, next)) {
+                long ts = next >>> SEQUENCE_BITS;
+                long seq = next & SEQUENCE_MASK;
+                return (ts << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | seq;
+            }
+        }
+    }
+
+    // overridden in tests to drive the clock
+    long currentMillis() {
+        return System.currentTimeMillis();
+    }
+}
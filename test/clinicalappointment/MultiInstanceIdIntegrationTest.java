@@ -0,0 +1,93 @@
+package clinicalappointment;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts several application instances on random localhost ports, each with its own node id,
+ * books appointments on all of them concurrently and checks that no appointment or patient id repeats.
+ */
+class MultiInstanceIdIntegrationTest {
+    private static final int INSTANCES = 3;
+    private static final int THREADS_PER_INSTANCE = 8;
+    private static final int BOOKINGS_PER_THREAD = 150;
+
+    private static final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private static final List<Integer> ports = new ArrayList<>();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeAll
+    static void startInstances() {
+        for (int node = 0; node < INSTANCES; node++) {
+            ConfigurableApplicationContext ctx = new SpringApplicationBuilder(ClinicalAppointmentApplication.class)
+                    .run("--server.port=0", "--app.node-id=" + (node + 1));
+            contexts.add(ctx);
+            ports.add(((ServletWebServerApplicationContext) ctx).getWebServer().getPort());
+        }
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void concurrentBookingsAcrossInstancesGetUniqueIds() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(INSTANCES * THREADS_PER_INSTANCE);
+        List<Future<List<JsonNode>>> futures = new ArrayList<>();
+        for (int port : ports) {
+            for (int t = 0; t < THREADS_PER_INSTANCE; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> book(port, thread)));
+            }
+        }
+
+        Set<String> appointmentIds = new HashSet<>();
+        Set<String> patientIds = new HashSet<>();
+        int total = 0;
+        for (Future<List<JsonNode>> f : futures) {
+            for (JsonNode appt : f.get(2, TimeUnit.MINUTES)) {
+                total++;
+                assertTrue(appointmentIds.add(appt.path("id").asText()), "duplicate appointment id " + appt.path("id"));
+                assertTrue(patientIds.add(appt.path("patient").path("id").asText()), "duplicate patient id");
+            }
+        }
+        pool.shutdown();
+
+        assertEquals(INSTANCES * THREADS_PER_INSTANCE * BOOKINGS_PER_THREAD, total);
+        assertEquals(total, appointmentIds.size());
+        assertEquals(total, patientIds.size());
+    }
+
+    private List<JsonNode> book(int port, int thread) throws Exception {
+        List<JsonNode> out = new ArrayList<>(BOOKINGS_PER_THREAD);
+        for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+            // no HKID or id, so every booking registers a new patient and draws a patient id too
+            String body = "{\"name\":\"Patient " + port + "-" + thread + "-" + i + "\",\"x\":22.3,\"y\":114.17}";
+            HttpRequest req = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/appointments"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            HttpResponse<String> res = client.send(req, HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, res.statusCode(), res.body());
+            out.add(mapper.readTree(res.body()));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,91 @@
+package clinicalappointment.controller;
+
+import clinicalappointment.model.Appointment;
+import clinicalappointment.model.AppointmentStatus;
+import clinicalappointment.model.Hospital;
+import clinicalappointment.model.Patient;
+import clinicalappointment.service.AppointmentService;
+import clinicalappointment.service.HospitalService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AppointmentController.class)
+class AppointmentControllerTest {
+    @Autowired
+    private MockMvc mvc;
+    @MockBean
+    private HospitalService hospitalService;
+    @MockBean
+    private AppointmentService appointmentService;
+
+    private static Appointment appointment(long id, AppointmentStatus status) {
+        return new Appointment(id, new Patient("Chan", 0, 0), new Hospital(1, "H"), Instant.EPOCH, status);
+    }
+
+    @Test
+    void checkInReturnsTheUpdatedAppointment() throws Exception {
+        long id = 370409123461726208L;
+        when(appointmentService.transition(id, AppointmentStatus.CHECKED_IN))
+                .thenReturn(appointment(id, AppointmentStatus.CHECKED_IN));
+        mvc.perform(post("/api/appointments/{id}/check-in", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(String.valueOf(id)))
+                .andExpect(jsonPath("$.status").value("CHECKED_IN"));
+    }
+
+    @Test
+    void checkInOfUnknownAppointmentIsNotFound() throws Exception {
+        when(appointmentService.transition(5L, AppointmentStatus.CHECKED_IN)).thenReturn(null);
+        mvc.perform(post("/api/appointments/5/check-in")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void checkInFromTheWrongStatusIsConflict() throws Exception {
+        when(appointmentService.transition(5L, AppointmentStatus.CHECKED_IN))
+                .thenThrow(new IllegalStateException("Cannot move appointment 5 from COMPLETED to CHECKED_IN"));
+        mvc.perform(post("/api/appointments/5/check-in")).andExpect(status().isConflict());
+    }
+
+    @Test
+    void completeReturnsTheUpdatedAppointment() throws Exception {
+        when(appointmentService.transition(7L, AppointmentStatus.COMPLETED))
+                .thenReturn(appointment(7L, AppointmentStatus.COMPLETED));
+        mvc.perform(post("/api/appointments/7/complete"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    @Test
+    void completeOfUnknownAppointmentIsNotFound() throws Exception {
+        when(appointmentService.transition(7L, AppointmentStatus.COMPLETED)).thenReturn(null);
+        mvc.perform(post("/api/appointments/7/complete")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void completeBeforeCheckInIsConflict() throws Exception {
+        when(appointmentService.transition(7L, AppointmentStatus.COMPLETED))
+                .thenThrow(new IllegalStateException("Cannot move appointment 7 from BOOKED to COMPLETED"));
+        mvc.perform(post("/api/appointments/7/complete")).andExpect(status().isConflict());
+    }
+
+    @Test
+    void bookingWithAConflictingPatientIdAndHkidIsConflict() throws Exception {
+        when(hospitalService.findNearestHospital(22.3, 114.1)).thenReturn(new Hospital(1, "H"));
+        when(appointmentService.createAppointment(any(Patient.class), any(Hospital.class)))
+                .thenThrow(new IllegalStateException("Patient id P1 is registered under a different HKID"));
+        mvc.perform(post("/api/appointments")
+                        .contentType("application/json")
+                        .content("{\"name\":\"Wong\",\"hkid\":\"B999\",\"id\":\"P1\",\"x\":22.3,\"y\":114.1}"))
+                .andExpect(status().isConflict());
+    }
+}
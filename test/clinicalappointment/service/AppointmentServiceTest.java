@@ -0,0 +1,178 @@
+package clinicalappointment.service;
+
+import clinicalappointment.model.Appointment;
+import clinicalappointment.model.AppointmentStatus;
+import clinicalappointment.model.Hospital;
+import clinicalappointment.model.Patient;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentServiceTest {
+    private final Hospital hospital = new Hospital(1, "Queen Mary Hospital", 22.27, 114.13);
+    private final AppointmentService service =
+            new AppointmentService(new SnowflakeIdGenerator(1), Duration.ofHours(4), Duration.ofHours(12), 1000);
+
+    private static Patient booking(String illness, double x, double y) {
+        Patient p = new Patient("Chan Tai Man", x, y);
+        p.setHkid("A1234567");
+        p.setIllnessRecord(illness);
+        return p;
+    }
+
+    @Test
+    void repeatVisitorIsListedOnceButEachVisitKeepsItsOwnRecords() {
+        Patient first = booking("fever", 22.30, 114.17);
+        first.setEmail("chan@example.com");
+        long firstId = service.createAppointment(first, hospital).getId();
+        Appointment second = service.createAppointment(booking("sprained ankle", 22.40, 114.20), hospital);
+
+        assertEquals(1, service.getAllPatients().size());
+        assertEquals("chan@example.com", second.getPatient().getEmail());
+
+        List<Appointment> all = service.getAllAppointments();
+        assertEquals(2, all.size());
+        Appointment firstAgain = all.get(0);
+        assertEquals(firstId, firstAgain.getId());
+        assertEquals("fever", firstAgain.getPatient().getIllnessRecord());
+        assertEquals(22.30, firstAgain.getPatient().getX());
+        assertEquals("sprained ankle", all.get(1).getPatient().getIllnessRecord());
+        assertEquals(firstAgain.getPatient().getId(), all.get(1).getPatient().getId());
+    }
+
+    @Test
+    void listedPatientsAreCopiesOfTheRegistry() {
+        service.createAppointment(booking("a", 0, 0), hospital);
+        Patient listed = service.getAllPatients().get(0);
+        listed.setName("changed by caller");
+
+        Patient rebooking = booking("b", 0, 0);
+        rebooking.setEmail("new@example.com");
+        service.createAppointment(rebooking, hospital);
+
+        assertEquals("changed by caller", listed.getName());
+        assertEquals("", listed.getEmail());
+        Patient fresh = service.getAllPatients().get(0);
+        assertEquals("Chan Tai Man", fresh.getName());
+        assertEquals("new@example.com", fresh.getEmail());
+    }
+
+    @Test
+    void appointmentsKeepAndAreDeletedByTheNameTheyWereBookedUnder() {
+        long old = service.createAppointment(booking("a", 0, 0), hospital).getId();
+        Patient renamed = booking("b", 0, 0);
+        renamed.setName("Chan Siu Ming");
+        long current = service.createAppointment(renamed, hospital).getId();
+
+        List<Appointment> all = service.getAllAppointments();
+        assertEquals("Chan Tai Man", all.get(0).getPatient().getName());
+        assertEquals("Chan Siu Ming", all.get(1).getPatient().getName());
+        assertEquals("Chan Siu Ming", service.getAllPatients().get(0).getName());
+
+        assertEquals(1, service.deleteAppointmentsByPatientName("Chan Tai Man"));
+        List<Appointment> left = service.getAllAppointments();
+        assertEquals(1, left.size());
+        assertEquals(current, left.get(0).getId());
+        assertNotEquals(old, left.get(0).getId());
+        assertEquals(1, service.getAllPatients().size());
+        assertEquals(1, service.deleteAppointmentsByPatientName("Chan Siu Ming"));
+        assertTrue(service.getAllPatients().isEmpty());
+    }
+
+    @Test
+    void deletingAllOfAPatientsAppointmentsRemovesThePatient() {
+        service.createAppointment(booking("a", 0, 0), hospital);
+        service.createAppointment(booking("b", 0, 0), hospital);
+        assertEquals(2, service.deleteAppointmentsByPatientName("Chan Tai Man"));
+        assertTrue(service.getAllPatients().isEmpty());
+        assertTrue(service.getAllAppointments().isEmpty());
+    }
+
+    // Short no-show deadline and a one millisecond tick so deadline tests run in real time
+    private AppointmentService fastExpiringService() {
+        return new AppointmentService(new SnowflakeIdGenerator(1), Duration.ofMillis(20), Duration.ofMillis(20), 1);
+    }
+
+    private static void waitPastDeadline() throws InterruptedException {
+        Thread.sleep(60);
+    }
+
+    private static AppointmentStatus statusOf(AppointmentService service, long id) {
+        return service.getAllAppointments().stream().filter(a -> a.getId() == id).findFirst().orElseThrow().getStatus();
+    }
+
+    @Test
+    void lifecycleMovesThroughCheckInAndCompletion() {
+        long id = service.createAppointment(booking("x", 0, 0), hospital).getId();
+        assertEquals(1, service.getActiveAppointmentCount(1));
+        assertEquals(AppointmentStatus.CHECKED_IN, service.transition(id, AppointmentStatus.CHECKED_IN).getStatus());
+        assertEquals(1, service.getActiveAppointmentCount(1));
+        assertEquals(AppointmentStatus.COMPLETED, service.transition(id, AppointmentStatus.COMPLETED).getStatus());
+        assertEquals(0, service.getActiveAppointmentCount(1));
+        assertThrows(IllegalStateException.class, () -> service.transition(id, AppointmentStatus.CHECKED_IN));
+        assertNull(service.transition(id + 1, AppointmentStatus.CHECKED_IN));
+    }
+
+    @Test
+    void bookedAppointmentBecomesNoShowAfterItsDeadline() throws InterruptedException {
+        AppointmentService fast = fastExpiringService();
+        long id = fast.createAppointment(booking("x", 0, 0), hospital).getId();
+        waitPastDeadline();
+        fast.expireDueAppointments();
+        assertEquals(AppointmentStatus.NO_SHOW, statusOf(fast, id));
+        assertEquals(0, fast.getActiveAppointmentCount(1));
+        assertEquals(1, fast.getAppointmentsByStatus(AppointmentStatus.NO_SHOW).size());
+    }
+
+    @Test
+    void staleNoShowTimerIsIgnoredAfterCheckIn() throws InterruptedException {
+        AppointmentService longVisits =
+                new AppointmentService(new SnowflakeIdGenerator(1), Duration.ofMillis(20), Duration.ofHours(1), 1);
+        long id = longVisits.createAppointment(booking("x", 0, 0), hospital).getId();
+        longVisits.transition(id, AppointmentStatus.CHECKED_IN);
+        waitPastDeadline();
+        longVisits.expireDueAppointments();
+        assertEquals(AppointmentStatus.CHECKED_IN, statusOf(longVisits, id));
+        assertEquals(1, longVisits.getActiveAppointmentCount(1));
+    }
+
+    @Test
+    void checkedInAppointmentExpiresUnlessCompleted() throws InterruptedException {
+        AppointmentService fast = fastExpiringService();
+        long expiring = fast.createAppointment(booking("x", 0, 0), hospital).getId();
+        long completed = fast.createAppointment(booking("y", 0, 0), hospital).getId();
+        fast.transition(expiring, AppointmentStatus.CHECKED_IN);
+        fast.transition(completed, AppointmentStatus.CHECKED_IN);
+        fast.transition(completed, AppointmentStatus.COMPLETED);
+        waitPastDeadline();
+        fast.expireDueAppointments();
+        assertEquals(AppointmentStatus.EXPIRED, statusOf(fast, expiring));
+        assertEquals(AppointmentStatus.COMPLETED, statusOf(fast, completed));
+    }
+
+    @Test
+    void timersOfDeletedAppointmentsAreIgnored() throws InterruptedException {
+        AppointmentService fast = fastExpiringService();
+        long deleted = fast.createAppointment(booking("x", 0, 0), hospital).getId();
+        long kept = fast.createAppointment(booking("y", 0, 0), hospital).getId();
+        assertTrue(fast.deleteAppointment(deleted));
+        waitPastDeadline();
+        fast.expireDueAppointments();
+        assertEquals(1, fast.getAllAppointments().size());
+        assertEquals(AppointmentStatus.NO_SHOW, statusOf(fast, kept));
+        assertEquals(0, fast.getActiveAppointmentCount(1));
+    }
+
+    @Test
+    void statusListingUsesTheSameOrderAsTheFullListing() {
+        long a = service.createAppointment(booking("a", 0, 0), hospital).getId();
+        long b = service.createAppointment(booking("b", 0, 0), hospital).getId();
+        service.transition(b, AppointmentStatus.CHECKED_IN);
+        service.transition(a, AppointmentStatus.CHECKED_IN);
+        List<Appointment> checkedIn = service.getAppointmentsByStatus(AppointmentStatus.CHECKED_IN);
+        assertEquals(List.of(a, b), checkedIn.stream().map(Appointment::getId).toList());
+    }
+}
@@ -0,0 +1,110 @@
+package clinicalappointment.service;
+
+import clinicalappointment.model.AppointmentStatus;
+import clinicalappointment.model.Hospital;
+import clinicalappointment.model.Patient;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentStoreTest {
+    private final Hospital[] hospitals = {new Hospital(10, "A"), new Hospital(20, "B"), new Hospital(30, "C")};
+    private final Patient visit = new Patient("visitor", 22.3, 114.1);
+
+    /** Checks the status lists and hospital counters against a full scan of the live slots. */
+    private void assertIndexesMatchScan(AppointmentStore store) {
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            List<Integer> expected = new ArrayList<>();
+            for (int slot = 0; slot < store.slotLimit(); slot++) {
+                if (store.isLive(slot) && store.status(slot) == status) expected.add(slot);
+            }
+            int[] actual = store.slotsWithStatus(status);
+            assertEquals(expected, Arrays.stream(actual).boxed().toList(), "status " + status);
+        }
+        for (Hospital h : hospitals) {
+            int active = 0;
+            for (int slot = 0; slot < store.slotLimit(); slot++) {
+                if (store.isLive(slot) && store.hospital(slot) == h && store.status(slot).isActive()) active++;
+            }
+            assertEquals(active, store.activeAt(h.getNodeId()), "hospital " + h.getNodeId());
+        }
+    }
+
+    @Test
+    void statusListsAndCountersFollowTransitionsAndDeletes() {
+        AppointmentStore store = new AppointmentStore();
+        for (int i = 0; i < 10; i++) store.add(i, 0, hospitals[i % 3], i, AppointmentStatus.BOOKED, "visitor", visit);
+        store.setStatus(store.slotOf(4), AppointmentStatus.CHECKED_IN);
+        store.setStatus(store.slotOf(1), AppointmentStatus.CHECKED_IN);
+        store.setStatus(store.slotOf(4), AppointmentStatus.COMPLETED);
+        store.setStatus(store.slotOf(7), AppointmentStatus.NO_SHOW);
+        store.remove(store.slotOf(0));
+
+        assertIndexesMatchScan(store);
+        assertEquals(3, store.activeAt(10)); // ids 3, 6, 9; 0 deleted
+        assertEquals(1, store.activeAt(20)); // id 1; 4 completed, 7 no-show
+        assertEquals(3, store.activeAt(30)); // ids 2, 5, 8
+        assertEquals(0, store.activeAt(99));
+        // listed in slot order even though 1 was checked in after 4
+        assertArrayEquals(new int[]{store.slotOf(1)}, store.slotsWithStatus(AppointmentStatus.CHECKED_IN));
+    }
+
+    @Test
+    void indexesStayConsistentAcrossCompaction() {
+        AppointmentStore store = new AppointmentStore();
+        Random random = new Random(11);
+        AppointmentStatus[] statuses = AppointmentStatus.values();
+        List<Long> live = new ArrayList<>();
+        long nextId = 1;
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 200; i++) {
+                store.add(nextId, 0, hospitals[random.nextInt(3)], nextId, AppointmentStatus.BOOKED, "visitor", visit);
+                live.add(nextId++);
+            }
+            for (long id : live) {
+                if (random.nextInt(4) == 0) store.setStatus(store.slotOf(id), statuses[random.nextInt(statuses.length)]);
+            }
+            // remove enough to cross the compaction threshold in most rounds
+            Collections.shuffle(live, random);
+            int toRemove = live.size() * 2 / 3;
+            for (int i = 0; i < toRemove; i++) store.remove(store.slotOf(live.remove(live.size() - 1)));
+            int slotsBefore = store.slotLimit();
+            store.compactIfSparse();
+            if (round == 0) assertTrue(store.slotLimit() < slotsBefore, "expected a compaction");
+
+            assertEquals(live.size(), store.liveCount());
+            for (long id : live) {
+                int slot = store.slotOf(id);
+                assertTrue(slot >= 0 && store.isLive(slot));
+                assertEquals(id, store.id(slot));
+            }
+            assertIndexesMatchScan(store);
+        }
+    }
+
+    @Test
+    void compactionPreservesInsertionOrderAndVisitDetails() {
+        AppointmentStore store = new AppointmentStore();
+        for (long id = 0; id < 200; id++) {
+            Patient p = new Patient("p", id, -id);
+            p.setIllnessRecord(id % 2 == 0 ? "note " + id : "");
+            store.add(id, 0, hospitals[0], id, AppointmentStatus.BOOKED, "p" + id, p);
+        }
+        for (long id = 0; id < 200; id += 3) store.remove(store.slotOf(id));
+        for (long id = 1; id < 200; id += 3) store.remove(store.slotOf(id));
+        store.compactIfSparse();
+
+        long prev = -1;
+        for (int slot = 0; slot < store.slotLimit(); slot++) {
+            assertTrue(store.isLive(slot));
+            long id = store.id(slot);
+            assertTrue(id > prev);
+            assertEquals(id, (long) store.visitX(slot));
+            assertEquals("p" + id, store.bookedName(slot));
+            assertEquals(id % 2 == 0 ? "note " + id : "", store.illnessRecord(slot));
+            prev = id;
+        }
+    }
+}
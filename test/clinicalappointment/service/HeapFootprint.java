@@ -0,0 +1,78 @@
+package clinicalappointment.service;
+
+import clinicalappointment.model.Appointment;
+import clinicalappointment.model.AppointmentStatus;
+import clinicalappointment.model.Hospital;
+import clinicalappointment.model.Patient;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Measures retained heap for one million appointments booked by 10,000 distinct patients, each booking
+ * carrying its own copy of realistic demographic fields and illness/health records.
+ * Not a unit test (surefire skips it); run one mode per JVM so the modes do not share garbage:
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -Xmx4g -cp target/classes:target/test-classes:$(cat target/cp.txt) clinicalappointment.service.HeapFootprint baseline
+ * java -Xmx4g -cp target/classes:target/test-classes:$(cat target/cp.txt) clinicalappointment.service.HeapFootprint store
+ * </pre>
+ * {@code baseline} keeps Appointment objects with an embedded Patient in a LinkedHashMap, as the service
+ * originally did; {@code store} books through {@link AppointmentService}.
+ */
+public class HeapFootprint {
+    private static final int APPOINTMENTS = 1_000_000;
+    private static final int PATIENTS = 10_000;
+
+    private static Patient booking(int i) {
+        int p = i % PATIENTS;
+        Patient patient = new Patient("Patient Name " + p, 22.3 + (i % 100) * 0.001, 114.1);
+        patient.setHkid("A" + (1_000_000 + p));
+        patient.setSex(new String(p % 2 == 0 ? "M" : "F"));
+        patient.setAge(30 + p % 50);
+        patient.setDob("1990-01-" + (10 + p % 18));
+        patient.setIllnessRecord("Hypertension, controlled with medication; follow-up visit #" + p);
+        patient.setHealthRecord("Allergic to penicillin. Non-smoker. BMI 23." + p);
+        patient.setEmail("patient" + p + "@example.com");
+        patient.setPhone("9" + (1_000_000 + p));
+        return patient;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "store";
+        Hospital[] hospitals = new Hospital[20];
+        for (int i = 0; i < hospitals.length; i++) hospitals[i] = new Hospital(i + 1, "Hospital " + i);
+        SnowflakeIdGenerator ids = new SnowflakeIdGenerator(1);
+
+        long before = usedHeap();
+        Object retained;
+        if (mode.equals("baseline")) {
+            Map<Long, Appointment> appointments = new LinkedHashMap<>();
+            for (int i = 0; i < APPOINTMENTS; i++) {
+                Patient p = booking(i);
+                p.setId("P" + ids.nextId());
+                long id = ids.nextId();
+                appointments.put(id, new Appointment(id, p, hospitals[i % hospitals.length], Instant.now(), AppointmentStatus.BOOKED));
+            }
+            retained = appointments;
+        } else {
+            AppointmentService service = new AppointmentService(ids, Duration.ofHours(4), Duration.ofHours(12), 1000);
+            for (int i = 0; i < APPOINTMENTS; i++) service.createAppointment(booking(i), hospitals[i % hospitals.length]);
+            retained = service;
+        }
+        long after = usedHeap();
+        System.out.printf("%s: %.1f MB retained for %,d appointments%n", mode, (after - before) / 1e6, APPOINTMENTS);
+        System.out.println(retained.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,120 @@
+package clinicalappointment.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimerWheelTest {
+    // 64^4 ticks: the span of the whole wheel
+    private static final long WHEEL_SPAN = 1L << 24;
+
+    /** Advances one tick at a time and records the tick each id fired on. */
+    private static Map<Long, Long> runUntil(HierarchicalTimerWheel wheel, long fromTick, long toTick) {
+        Map<Long, Long> firedAt = new HashMap<>();
+        for (long t = fromTick + 1; t <= toTick; t++) {
+            long tick = t;
+            wheel.advance(t, (id, tag) -> assertNull(firedAt.put(id, tick), "fired twice: " + id));
+        }
+        return firedAt;
+    }
+
+    @Test
+    void firesExactlyOnTheDeadlineTickAcrossLevelBoundaries() {
+        HierarchicalTimerWheel wheel = new HierarchicalTimerWheel(1, 0);
+        long[] deadlines = {1, 63, 64, 65, 127, 128, 4095, 4096, 4097, 262_143, 262_144, 262_145, 300_000};
+        for (long d : deadlines) wheel.schedule(d, d, (byte) 1);
+
+        Map<Long, Long> firedAt = runUntil(wheel, 0, 300_000);
+        for (long d : deadlines) assertEquals(d, firedAt.get(d), "deadline " + d);
+    }
+
+    @Test
+    void levelBoundariesAreRelativeToTheCurrentTick() {
+        // start mid-way through every level so cascades happen at unaligned offsets
+        long start = 123_457;
+        HierarchicalTimerWheel wheel = new HierarchicalTimerWheel(1, start);
+        long[] offsets = {1, 63, 64, 65, 4032, 4095, 4096, 4097, 262_080, 262_144, 262_145};
+        for (long off : offsets) wheel.schedule(off, start + off, (byte) 1);
+
+        Map<Long, Long> firedAt = runUntil(wheel, start, start + 262_145);
+        for (long off : offsets) assertEquals(start + off, firedAt.get(off), "offset " + off);
+    }
+
+    @Test
+    void deadlinesBeyondTheTopLevelAreReparkedAndStillFireOnTime() {
+        HierarchicalTimerWheel wheel = new HierarchicalTimerWheel(1, 0);
+        long far = WHEEL_SPAN + 100;
+        long veryFar = 3 * WHEEL_SPAN + 7;
+        wheel.schedule(1, far, (byte) 1);
+        wheel.schedule(2, veryFar, (byte) 1);
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(far - 1, (id, tag) -> fired.add(id));
+        assertTrue(fired.isEmpty(), "must not fire before its deadline");
+        wheel.advance(far, (id, tag) -> fired.add(id));
+        assertEquals(List.of(1L), fired);
+
+        wheel.advance(veryFar - 1, (id, tag) -> fired.add(id));
+        assertEquals(List.of(1L), fired);
+        wheel.advance(veryFar, (id, tag) -> fired.add(id));
+        assertEquals(List.of(1L, 2L), fired);
+    }
+
+    @Test
+    void deadlinesRoundUpToTheNextTickAndPastDeadlinesFireOnTheNextTick() {
+        HierarchicalTimerWheel wheel = new HierarchicalTimerWheel(1000, 10_000);
+        wheel.schedule(1, 12_001, (byte) 1);
+        wheel.schedule(2, 5_000, (byte) 2);
+
+        List<Long> fired = new ArrayList<>();
+        List<Byte> tags = new ArrayList<>();
+        wheel.advance(10_999, (id, tag) -> fired.add(id));
+        assertTrue(fired.isEmpty());
+        wheel.advance(11_000, (id, tag) -> { fired.add(id); tags.add(tag); });
+        assertEquals(List.of(2L), fired);
+        assertEquals(List.of((byte) 2), tags);
+        wheel.advance(12_999, (id, tag) -> fired.add(id));
+        assertEquals(List.of(2L), fired);
+        wheel.advance(13_000, (id, tag) -> fired.add(id));
+        assertEquals(List.of(2L, 1L), fired);
+    }
+
+    @Test
+    void randomDeadlinesNeverFireEarlyLateOrTwice() {
+        Random random = new Random(3);
+        long start = 987_654;
+        HierarchicalTimerWheel wheel = new HierarchicalTimerWheel(1, start);
+        Map<Long, Long> due = new HashMap<>();
+        long now = start;
+        long nextId = 0;
+        while (now < start + 400_000) {
+            for (int i = 0; i < 5; i++) {
+                long deadline = now + 1 + (long) (Math.pow(random.nextDouble(), 3) * 300_000);
+                wheel.schedule(nextId, deadline, (byte) 1);
+                due.put(nextId++, deadline);
+            }
+            // jump several ticks at once, the way the scheduled job does after a slow tick
+            now += 1 + random.nextInt(200);
+            long current = now;
+            wheel.advance(now, (id, tag) -> {
+                Long deadline = due.remove(id);
+                assertNotNull(deadline, "unknown or repeated id " + id);
+                assertTrue(deadline <= current, "fired early");
+            });
+            for (long deadline : due.values()) assertTrue(deadline > now, "missed deadline " + deadline);
+        }
+    }
+
+    @Test
+    void freedEntriesAreReused() {
+        HierarchicalTimerWheel wheel = new HierarchicalTimerWheel(1, 0);
+        int[] fired = {0};
+        for (long round = 0; round < 1_000; round++) {
+            for (int i = 0; i < 100; i++) wheel.schedule(round * 100 + i, round + 1, (byte) 1);
+            wheel.advance(round + 1, (id, tag) -> fired[0]++);
+        }
+        assertEquals(100_000, fired[0]);
+    }
+}
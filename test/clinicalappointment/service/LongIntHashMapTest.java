@@ -0,0 +1,95 @@
+package clinicalappointment.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntHashMapTest {
+
+    @Test
+    void missingKeysReturnMissing() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        assertEquals(LongIntHashMap.MISSING, map.get(42));
+        assertEquals(LongIntHashMap.MISSING, map.remove(42));
+    }
+
+    @Test
+    void putOverwritesAndRemoveReturnsOldValue() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        map.put(7, 1);
+        map.put(7, 2);
+        assertEquals(2, map.get(7));
+        assertEquals(2, map.remove(7));
+        assertEquals(LongIntHashMap.MISSING, map.get(7));
+    }
+
+    @Test
+    void rejectsNegativeKeys() {
+        assertThrows(IllegalArgumentException.class, () -> new LongIntHashMap(4).put(-1, 0));
+    }
+
+    @Test
+    void removalKeepsProbeChainsThatWrapAroundTheTableEnd() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        // last index of the table, found from the slots keys actually hash to
+        int last = 0;
+        for (long k = 0; k < 10_000; k++) last = Math.max(last, map.slot(k));
+
+        // three keys hashing to the last slot occupy it and spill into slots 0 and 1
+        List<Long> tail = keysWithHome(map, last, 3);
+        // a key whose home is slot 0 probes past the wrapped entries
+        long head = keysWithHome(map, 0, 1).get(0);
+        for (long k : tail) map.put(k, (int) k);
+        map.put(head, -5);
+
+        assertEquals(-5, map.get(head));
+        // removing the first wrapped key must shift the others (and the slot-0 key) back
+        assertEquals((int) (long) tail.get(0), map.remove(tail.get(0)));
+        assertEquals(LongIntHashMap.MISSING, map.get(tail.get(0)));
+        assertEquals((int) (long) tail.get(1), map.get(tail.get(1)));
+        assertEquals((int) (long) tail.get(2), map.get(tail.get(2)));
+        assertEquals(-5, map.get(head));
+
+        map.remove(tail.get(2));
+        assertEquals((int) (long) tail.get(1), map.get(tail.get(1)));
+        assertEquals(-5, map.get(head));
+        map.remove(tail.get(1));
+        assertEquals(-5, map.get(head));
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperationsAndRehash() {
+        LongIntHashMap map = new LongIntHashMap(1);
+        Map<Long, Integer> oracle = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 300_000; i++) {
+            // small key space forces collisions and removals; the growing phase forces rehashes
+            long key = i < 100_000 ? random.nextInt(2_000) : random.nextInt(50_000) * 4_194_304L;
+            switch (random.nextInt(3)) {
+                case 0:
+                    map.put(key, i);
+                    oracle.put(key, i);
+                    break;
+                case 1:
+                    assertEquals(oracle.getOrDefault(key, LongIntHashMap.MISSING), map.remove(key));
+                    oracle.remove(key);
+                    break;
+                default:
+                    assertEquals(oracle.getOrDefault(key, LongIntHashMap.MISSING), map.get(key));
+            }
+        }
+        for (Map.Entry<Long, Integer> e : oracle.entrySet()) {
+            assertEquals(e.getValue(), map.get(e.getKey()));
+        }
+    }
+
+    private static List<Long> keysWithHome(LongIntHashMap map, int home, int count) {
+        List<Long> out = new ArrayList<>();
+        for (long k = 1; out.size() < count; k++) {
+            if (map.slot(k) == home) out.add(k);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,147 @@
+package clinicalappointment.service;
+
+import clinicalappointment.model.Patient;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatientRegistryTest {
+    private int nextId = 1;
+    private final Supplier<String> ids = () -> "P" + nextId++;
+
+    private static Patient patient(String name, String hkid) {
+        Patient p = new Patient(name, 22.3, 114.1);
+        p.setHkid(hkid);
+        return p;
+    }
+
+    @Test
+    void sameHkidResolvesToOnePatient() {
+        PatientRegistry registry = new PatientRegistry();
+        int first = registry.acquire(patient("Chan Tai Man", "A1234567"), ids);
+        int second = registry.acquire(patient("Chan Tai Man", " a1234567 "), ids);
+        assertEquals(first, second);
+        assertEquals(1, registry.getAll().size());
+        assertEquals("P1", registry.get(first).getId());
+    }
+
+    @Test
+    void matchesByIdWhenNoHkidIsGiven() {
+        PatientRegistry registry = new PatientRegistry();
+        int ref = registry.acquire(patient("Lee", ""), ids);
+        Patient again = patient("Lee", "");
+        again.setId(registry.get(ref).getId());
+        assertEquals(ref, registry.acquire(again, ids));
+
+        // a different patient without HKID or id is never merged
+        assertNotEquals(ref, registry.acquire(patient("Lee", ""), ids));
+    }
+
+    @Test
+    void hkidMatchWinsOverASuppliedId() {
+        PatientRegistry registry = new PatientRegistry();
+        int ref = registry.acquire(patient("Wong", "B7654321"), ids);
+        Patient again = patient("Wong", "B7654321");
+        again.setId("client-id");
+        assertEquals(ref, registry.acquire(again, ids));
+        assertEquals("P1", registry.get(ref).getId());
+    }
+
+    @Test
+    void rebookingMergesNonBlankFieldsAndKeepsTheRest() {
+        PatientRegistry registry = new PatientRegistry();
+        Patient first = patient("Chan", "A1");
+        first.setEmail("chan@example.com");
+        first.setPhone("91234567");
+        first.setAge(40);
+        first.setIllnessRecord("visit one notes");
+        int ref = registry.acquire(first, ids);
+
+        Patient second = patient("Chan", "A1");
+        second.setPhone("98765432");
+        second.setIllnessRecord("visit two notes");
+        registry.acquire(second, ids);
+
+        Patient stored = registry.get(ref);
+        assertEquals("chan@example.com", stored.getEmail());
+        assertEquals("98765432", stored.getPhone());
+        assertEquals(40, stored.getAge());
+        // per-visit records stay with the appointment, not the registry
+        assertEquals("", stored.getIllnessRecord());
+    }
+
+    @Test
+    void sexIsInterned() {
+        PatientRegistry registry = new PatientRegistry();
+        Patient a = patient("A", "H1");
+        a.setSex(new String("F"));
+        Patient b = patient("B", "H2");
+        b.setSex(new String("F"));
+        String sexA = registry.get(registry.acquire(a, ids)).getSex();
+        String sexB = registry.get(registry.acquire(b, ids)).getSex();
+        assertSame(sexA, sexB);
+    }
+
+    @Test
+    void patientIsDroppedWhenTheLastReferenceIsReleased() {
+        PatientRegistry registry = new PatientRegistry();
+        int ref = registry.acquire(patient("Chan", "A1"), ids);
+        registry.acquire(patient("Chan", "A1"), ids);
+
+        registry.release(ref);
+        assertEquals(1, registry.getAll().size());
+        registry.release(ref);
+        assertTrue(registry.getAll().isEmpty());
+        assertNull(registry.get(ref));
+
+        // the HKID is no longer bound, so the next booking is a new patient with a new id
+        int again = registry.acquire(patient("Chan", "A1"), ids);
+        assertEquals("P2", registry.get(again).getId());
+    }
+
+    @Test
+    void freedRefsAreReused() {
+        PatientRegistry registry = new PatientRegistry();
+        int a = registry.acquire(patient("A", "H1"), ids);
+        int b = registry.acquire(patient("B", "H2"), ids);
+        registry.release(a);
+        int c = registry.acquire(patient("C", "H3"), ids);
+        assertEquals(a, c);
+        assertEquals("C", registry.get(c).getName());
+        assertEquals("B", registry.get(b).getName());
+        assertEquals(2, registry.getAll().size());
+    }
+
+    @Test
+    void idOfAnotherPatientWithADifferentHkidIsRejected() {
+        PatientRegistry registry = new PatientRegistry();
+        Patient chan = patient("Chan", "A111");
+        chan.setEmail("chan@example.com");
+        int ref = registry.acquire(chan, ids);
+
+        Patient wong = patient("Wong", "B999");
+        wong.setId(registry.get(ref).getId());
+        assertThrows(IllegalStateException.class, () -> registry.acquire(wong, ids));
+
+        // Chan's profile and bindings are untouched
+        Patient stored = registry.get(ref);
+        assertEquals("Chan", stored.getName());
+        assertEquals("A111", stored.getHkid());
+        assertEquals("chan@example.com", stored.getEmail());
+        assertEquals(ref, registry.acquire(patient("Chan", "A111"), ids));
+        assertEquals(1, registry.getAll().size());
+    }
+
+    @Test
+    void unknownHkidWithAnUnregisteredIdIsANewPatient() {
+        PatientRegistry registry = new PatientRegistry();
+        int chan = registry.acquire(patient("Chan", "A111"), ids);
+        Patient wong = patient("Wong", "B999");
+        wong.setId("EXT-42");
+        int ref = registry.acquire(wong, ids);
+        assertNotEquals(chan, ref);
+        assertEquals("EXT-42", registry.get(ref).getId());
+    }
+}
@@ -0,0 +1,137 @@
+package clinicalappointment.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static clinicalappointment.service.SnowflakeIdGenerator.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+    // Generator whose clock only moves when the test says so
+    private static class FixedClockGenerator extends SnowflakeIdGenerator {
+        long now;
+
+        FixedClockGenerator(long nodeId, long now) {
+            super(nodeId);
+            this.now = now;
+        }
+
+        @Override
+        long currentMillis() { return now; }
+    }
+
+    private static long timestampOf(long id) { return id >>> (NODE_BITS + SEQUENCE_BITS); }
+    private static long nodeOf(long id) { return (id >>> SEQUENCE_BITS) & MAX_NODE_ID; }
+    private static long sequenceOf(long id) { return id & SEQUENCE_MASK; }
+
+    @Test
+    void packsTimestampNodeAndSequence() {
+        FixedClockGenerator gen = new FixedClockGenerator(5, EPOCH_MILLIS + 1000);
+        long first = gen.nextId();
+        assertEquals((1000L << 22) | (5L << 12), first);
+        long second = gen.nextId();
+        assertEquals(1000, timestampOf(second));
+        assertEquals(5, nodeOf(second));
+        assertEquals(1, sequenceOf(second));
+    }
+
+    @Test
+    void maxNodeIdDoesNotSpillIntoOtherFields() {
+        FixedClockGenerator gen = new FixedClockGenerator(MAX_NODE_ID, EPOCH_MILLIS + 42);
+        long id = gen.nextId();
+        assertEquals(42, timestampOf(id));
+        assertEquals(MAX_NODE_ID, nodeOf(id));
+        assertEquals(0, sequenceOf(id));
+        assertTrue(id > 0);
+    }
+
+    @Test
+    void sequenceResetsWhenTheClockAdvances() {
+        FixedClockGenerator gen = new FixedClockGenerator(1, EPOCH_MILLIS + 10);
+        gen.nextId();
+        gen.nextId();
+        gen.now++;
+        long id = gen.nextId();
+        assertEquals(11, timestampOf(id));
+        assertEquals(0, sequenceOf(id));
+    }
+
+    @Test
+    void sequenceOverflowBorrowsTheNextMillisecond() {
+        FixedClockGenerator gen = new FixedClockGenerator(3, EPOCH_MILLIS + 500);
+        long prev = -1;
+        for (int i = 0; i <= SEQUENCE_MASK; i++) {
+            long id = gen.nextId();
+            assertEquals(500, timestampOf(id));
+            assertEquals(i, sequenceOf(id));
+            assertTrue(id > prev);
+            prev = id;
+        }
+        long overflow = gen.nextId();
+        assertEquals(501, timestampOf(overflow));
+        assertEquals(0, sequenceOf(overflow));
+        assertEquals(3, nodeOf(overflow));
+        assertTrue(overflow > prev);
+
+        // once the real clock reaches the borrowed millisecond, ids continue from the logical clock
+        gen.now = EPOCH_MILLIS + 501;
+        long next = gen.nextId();
+        assertEquals(501, timestampOf(next));
+        assertEquals(1, sequenceOf(next));
+    }
+
+    @Test
+    void clockGoingBackwardsKeepsIdsIncreasing() {
+        FixedClockGenerator gen = new FixedClockGenerator(7, EPOCH_MILLIS + 10_000);
+        long before = gen.nextId();
+        gen.now -= 5_000;
+        Set<Long> seen = new HashSet<>();
+        long prev = before;
+        for (int i = 0; i < 10_000; i++) {
+            long id = gen.nextId();
+            assertTrue(id > prev, "ids must keep increasing while the clock is behind");
+            assertTrue(timestampOf(id) >= 10_000);
+            assertTrue(seen.add(id));
+            prev = id;
+        }
+        // when the clock catches up past the logical clock, the real time is used again
+        gen.now = EPOCH_MILLIS + 20_000;
+        long caughtUp = gen.nextId();
+        assertEquals(20_000, timestampOf(caughtUp));
+        assertEquals(0, sequenceOf(caughtUp));
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(MAX_NODE_ID + 1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-2));
+    }
+
+    @Test
+    void unsetNodeIdFallsBackToNodeZero() {
+        FixedClockGenerator gen = new FixedClockGenerator(UNSET_NODE_ID, EPOCH_MILLIS + 1);
+        assertEquals(0, nodeOf(gen.nextId()));
+    }
+
+    @Test
+    void concurrentCallersOnSeveralNodesNeverCollide() throws InterruptedException {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        int perThread = 50_000;
+        for (int node = 0; node < 3; node++) {
+            SnowflakeIdGenerator gen = new SnowflakeIdGenerator(node);
+            for (int t = 0; t < 4; t++) {
+                Thread th = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) ids.add(gen.nextId());
+                });
+                threads.add(th);
+                th.start();
+            }
+        }
+        for (Thread th : threads) th.join();
+        assertEquals(3 * 4 * perThread, ids.size());
+    }
+}